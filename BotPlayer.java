@@ -4,8 +4,11 @@ import java.util.Random;
  * Extends and overrides the HumanPlayer class to allow a bot to interact
  * autonomously with the game.
  *
+ * By default the bot chases the human player, but any BotStrategy can be
+ * plugged in to decide its moves instead.
+ *
  */
-public class BotPlayer extends HumanPlayer{
+public class BotPlayer extends HumanPlayer implements BotStrategy {
 
     private final char playerChar = 'B';
     private final int[] botPos = {2,2};
@@ -13,45 +16,91 @@ public class BotPlayer extends HumanPlayer{
     private String nextCommand = "LOOK";
     private String[] map;
     private final String[] moves = {"MOVE N","MOVE S","MOVE E","MOVE W"};
+    private final BotStrategy strategy;
+    private final Random rand;
+
+    /**
+     * Default constructor
+     * Builds a bot that chases the human player.
+     */
+    public BotPlayer(){
+        this.strategy = this;
+        this.rand = new Random();
+    }
+
+    /**
+     * Builds a bot that uses the given strategy to decide its moves.
+     *
+     * @param strategy : The strategy deciding the bot's moves.
+     * @param rand : Random source handed to the strategy.
+     */
+    public BotPlayer(BotStrategy strategy, Random rand){
+        this.strategy = strategy;
+        this.rand = rand;
+    }
+
+    /**
+     *
+     * @return : The strategy's name.
+     */
+    public String getName(){
+        return "Chase";
+    }
+
+    /**
+     *
+     * @return : Whether the strategy can play as the chaser.
+     */
+    public boolean canChase(){
+        return true;
+    }
 
     /**
-     * Examines a 5x5 LOOK string array for the player character P and decides
-     * which direction to move in depending on where that player character is.
+     *
+     * @return : Whether the strategy can play as the runner.
+     */
+    public boolean canRun(){
+        return false;
+    }
+
+    /**
+     * Examines a 5x5 LOOK string array for the target character and decides
+     * which direction to move in depending on where that character is.
      *
      * @param map : The 5x5 map array to be examined.
+     * @param target : The character to chase.
+     * @param rand : Random source for when the target is not in view.
+     * @return : The next MOVE command.
      */
-    protected void decideMove(String[] map){
+    public String decideMove(String[] map, char target, Random rand){
         int[] humanPos = {-1,-1}; // Initialise with impossible value
-        Random rand = new Random();
-        String direction;
+        String direction = moves[rand.nextInt(moves.length)];
         for (int i = 0; i < map.length; i++){
             for (int j = 0; j < map[i].length(); j++){
-                if (map[i].charAt(j) == 'P'){ // When found, assign the absolute co-ords
+                if (map[i].charAt(j) == target){ // When found, assign the absolute co-ords
                     humanPos[0] = i;
                     humanPos[1] = j;
                 }
             }
         }
-        if (humanPos[0] == -1){ // If P is not present
-            direction = moves[rand.nextInt(moves.length)];
-            nextCommand = direction;
-        } else {
-            int dx = humanPos[0] - 2; // Convert absolute co-ords to relative around 2,2 (Centre of 5x5 array)
-            int dy = humanPos[1] - 2;
+        if (humanPos[0] != -1){ // If the target is present
+            int dx = humanPos[0] - botPos[0]; // Convert absolute co-ords to relative around 2,2 (Centre of 5x5 array)
+            int dy = humanPos[1] - botPos[1];
 
             if (dy <= 0){
-                nextCommand = "MOVE W";
+                direction = "MOVE W";
             }
             if (dy >= 0){
-                nextCommand = "MOVE E";
+                direction = "MOVE E";
             }
             if (dx > 0){
-                nextCommand = "MOVE S";
+                direction = "MOVE S";
             }
             if (dx < 0){
-                nextCommand = "MOVE N";
+                direction = "MOVE N";
             }
         }
+        return direction;
     }
 
     /**
@@ -63,12 +112,30 @@ public class BotPlayer extends HumanPlayer{
         if (lookTurn){
             nextCommand = "LOOK";
         } else {
-            decideMove(map);
+            nextCommand = strategy.decideMove(map, getTargetChar(), rand);
         }
         lookTurn = !lookTurn;
         return nextCommand;
     }
 
+    /**
+     * Starts the bot's turn order again from a LOOK, as when its last
+     * decision was made from a view that is now out of date.
+     */
+    protected void resetTurn(){
+        lookTurn = true;
+        nextCommand = "LOOK";
+    }
+
+    /**
+     * Overrides the next command without using up the bot's turn order.
+     *
+     * @param command : The command the bot is about to execute.
+     */
+    protected void setNextCommand(String command){
+        nextCommand = command;
+    }
+
     /**
      *
      * @return : The bot player character.
@@ -77,6 +144,14 @@ public class BotPlayer extends HumanPlayer{
         return playerChar;
     }
 
+    /**
+     *
+     * @return : The character of the player the bot is playing against.
+     */
+    protected char getTargetChar(){
+        return 'P';
+    }
+
     /**
      * Overrides human method and instead reads the output of a LOOK
      * command into the map string array.
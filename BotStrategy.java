@@ -0,0 +1,45 @@
+import java.util.Random;
+
+/**
+ * A pluggable decision procedure for an autonomous player. Given the
+ * output of its last LOOK, a strategy picks the next command to send
+ * to the game.
+ *
+ * Strategies must not keep per-game state, as a single instance may be
+ * shared by many games running at once.
+ *
+ */
+public interface BotStrategy {
+
+    /**
+     * Returns the name of the strategy, as shown in tournament tables.
+     *
+     * @return : The strategy's name.
+     */
+    String getName();
+
+    /**
+     * Checks if the strategy was written to play as the bot, chasing the target.
+     *
+     * @return : Whether the strategy can play as the chaser.
+     */
+    boolean canChase();
+
+    /**
+     * Checks if the strategy was written to play as the player, running from the target.
+     *
+     * @return : Whether the strategy can play as the runner.
+     */
+    boolean canRun();
+
+    /**
+     * Examines a 5x5 LOOK string array and decides on the next command.
+     *
+     * @param map : The 5x5 map array last seen by the player, centred on it.
+     * @param target : The character of the opposing player.
+     * @param rand : Random source to use for any random choices.
+     * @return : The command to execute next, e.g. "MOVE N".
+     */
+    String decideMove(String[] map, char target, Random rand);
+
+}
@@ -0,0 +1,129 @@
+import java.util.Random;
+
+/**
+ * Moves away from the target when it is in view, otherwise heads for
+ * the nearest visible gold, otherwise wanders randomly.
+ *
+ */
+public class EvadeStrategy implements BotStrategy {
+
+    private final String[] moves = {"MOVE N","MOVE S","MOVE E","MOVE W"};
+
+    /**
+     *
+     * @return : The strategy's name.
+     */
+    public String getName(){
+        return "Evade";
+    }
+
+    /**
+     *
+     * @return : Whether the strategy can play as the chaser.
+     */
+    public boolean canChase(){
+        return false;
+    }
+
+    /**
+     *
+     * @return : Whether the strategy can play as the runner.
+     */
+    public boolean canRun(){
+        return true;
+    }
+
+    /**
+     * Flees from the target if visible, otherwise steps towards gold.
+     *
+     * @param map : The 5x5 map array to be examined.
+     * @param target : The character of the opposing player.
+     * @param rand : Random source for when nothing of interest is in view.
+     * @return : The next MOVE command.
+     */
+    public String decideMove(String[] map, char target, Random rand){
+        int[] targetPos = find(map, target);
+        if (targetPos != null){
+            int dx = targetPos[0] - 2; // Relative to the centre of the 5x5 array
+            int dy = targetPos[1] - 2;
+            if (Math.abs(dx) >= Math.abs(dy)){ // Flee along the axis the target is farthest away on
+                return pickOpen(map, dx > 0 ? "MOVE N" : "MOVE S", rand);
+            }
+            return pickOpen(map, dy > 0 ? "MOVE W" : "MOVE E", rand);
+        }
+        int[] goldPos = find(map, 'G');
+        if (goldPos != null){
+            String vertical = null;
+            String horizontal = null;
+            if (goldPos[0] != 2){
+                vertical = goldPos[0] < 2 ? "MOVE N" : "MOVE S";
+            }
+            if (goldPos[1] != 2){
+                horizontal = goldPos[1] < 2 ? "MOVE W" : "MOVE E";
+            }
+            if (vertical != null && (horizontal == null || isOpen(map, vertical))){ // Go around a wall in the way
+                return pickOpen(map, vertical, rand);
+            }
+            return pickOpen(map, horizontal, rand);
+        }
+        return moves[rand.nextInt(moves.length)];
+    }
+
+    /**
+     * Finds the nearest occurrence of a character in the LOOK array.
+     *
+     * @param map : The 5x5 map array.
+     * @param c : The character to find.
+     * @return : The co-ords of the character, or null if not in view.
+     */
+    private int[] find(String[] map, char c){
+        int[] found = null;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < map.length; i++){
+            for (int j = 0; j < map[i].length(); j++){
+                int distance = Math.abs(i - 2) + Math.abs(j - 2);
+                if (map[i].charAt(j) == c && distance > 0 && distance < best){
+                    found = new int[]{i, j};
+                    best = distance;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the preferred move unless it walks into a wall, in which case
+     * a random move is returned instead.
+     *
+     * @param map : The 5x5 map array.
+     * @param preferred : The preferred MOVE command.
+     * @param rand : Random source for the fallback move.
+     * @return : The move to make.
+     */
+    private String pickOpen(String[] map, String preferred, Random rand){
+        if (!isOpen(map, preferred)){
+            return moves[rand.nextInt(moves.length)];
+        }
+        return preferred;
+    }
+
+    /**
+     * Checks if a move would step onto a tile that is not a wall.
+     *
+     * @param map : The 5x5 map array.
+     * @param move : The MOVE command.
+     * @return : Whether the tile moved onto is not a wall.
+     */
+    private boolean isOpen(String[] map, String move){
+        int x = 2;
+        int y = 2;
+        switch (move){
+            case "MOVE N" : x--; break;
+            case "MOVE S" : x++; break;
+            case "MOVE E" : y++; break;
+            default : y--;
+        }
+        return map[x].charAt(y) != '#';
+    }
+
+}
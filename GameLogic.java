@@ -1,3 +1,5 @@
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -11,6 +13,7 @@ public class GameLogic {
 	private HumanPlayer player;
 	private BotPlayer bot;
 	private boolean running = true;
+	private SessionStore session;
 	
 	/**
 	 * Default constructor
@@ -24,21 +27,56 @@ public class GameLogic {
         bot = new BotPlayer();
 	    String fileName = player.getInputFromConsole("Please enter a valid map filename with extension:");
 		map = new Map(fileName);
+		spawn(player, rand);
+		spawn(bot, rand);
+	}
+
+	/**
+	 * Builds a game on the given map with the given players, placing
+	 * them into different random locations without reading the console.
+	 *
+	 * @param map : The map to play on. It is modified as the game goes on.
+	 * @param player : The player taking the human's place.
+	 * @param bot : The bot chasing the player.
+	 * @param rand : Random source used to place the players.
+	 */
+	public GameLogic(Map map, HumanPlayer player, BotPlayer bot, Random rand) {
+		this.map = map;
+		this.player = player;
+		this.bot = bot;
+		spawn(player, rand);
+		spawn(bot, rand);
+	}
+
+	/**
+	 * Builds a game from a map and players that have already been placed,
+	 * as when restoring a saved game.
+	 *
+	 * @param map : The map to play on, with the players already on it.
+	 * @param player : The human player.
+	 * @param bot : The bot chasing the player.
+	 */
+	public GameLogic(Map map, HumanPlayer player, BotPlayer bot) {
+		this.map = map;
+		this.player = player;
+		this.bot = bot;
+	}
+
+	/**
+	 * Places a player down at a random floor tile on the map.
+	 *
+	 * @param player : The player being placed.
+	 * @param rand : Random source used to pick the tile.
+	 */
+	protected void spawn(HumanPlayer player, Random rand) {
         int random_x;
         int random_y;
-		do { // Place human down at random tiles until character is floor.
+		do { // Place player down at random tiles until character is floor.
 		    random_x = rand.nextInt(map.getMapDimensions()[0]);
 		    random_y = rand.nextInt(map.getMap()[random_x].length);
         } while (map.getMapChar(random_x, random_y) != '.');
 		player.setPosition(random_x, random_y);
 		map.liftChar(player);
-
-        do { // Place human down at random tiles until character is floor.
-            random_x = rand.nextInt(map.getMapDimensions()[0]);
-            random_y = rand.nextInt(map.getMap()[random_x].length);
-        } while (map.getMapChar(random_x, random_y) != '.');
-        bot.setPosition(random_x, random_y);
-        map.liftChar(bot);
 	}
 
     /**
@@ -91,6 +129,10 @@ public class GameLogic {
         if (nextMoveIsWall(dx,dy, player)){
             return "Fail";
         }
+        int[] pos = player.getPosition();
+        if (map.getMapChar(pos[0]+dx, pos[1]+dy) == player.getPlayerChar()){ // Bots cannot stack on each other
+            return "Fail";
+        }
         map.replaceChar(player);
         player.movePosition(dx, dy);
         map.liftChar(player);
@@ -120,10 +162,10 @@ public class GameLogic {
         StringBuilder output = new StringBuilder();
         for (int x = pos[0]-2; x < pos[0]+3; x++){ // From -2 up to 3 goes through 5 rows around player position
             for (int y = pos[1]-2; y < pos[1]+3; y++){  // Iterate through view in 2 dimensions
-                try {
+                if (x >= 0 && x < map.getMap().length && y >= 0 && y < map.getMap()[x].length){
                     output.append(map.getMap()[x][y]);
-                } catch (ArrayIndexOutOfBoundsException abe) { // Catch areas outside of map and replace with #
-                    output.append("#");
+                } else { // Areas outside of map are replaced with #
+                    output.append('#');
                 }
             }
             output.append('\n'); // Ensure map is printed as square
@@ -163,33 +205,102 @@ public class GameLogic {
     }
 
     /**
-     * Assigns an input string array to a command.
+     * Checks if the bot has caught the player.
+     *
+     * @return : Whether the bot and the player share a tile.
+     */
+    protected boolean isCaptured() {
+        return Arrays.equals(player.getPosition(), bot.getPosition());
+    }
+
+    /**
+     * Checks if the game is still being played.
+     *
+     * @return : False once a player has quit or been caught.
+     */
+    protected boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the map this game is played on.
+     *
+     * @return : The map.
+     */
+    protected Map getMap() {
+        return map;
+    }
+
+    /**
+     * Sets the session store that commands are journaled to.
+     *
+     * @param session : The store to journal to, or null to stop journaling.
+     */
+    protected void setSession(SessionStore session) {
+        this.session = session;
+    }
+
+    /**
+     * Returns the human player of this game.
+     *
+     * @return : The human player.
+     */
+    protected HumanPlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the bot of this game.
+     *
+     * @return : The bot.
+     */
+    protected BotPlayer getBot() {
+        return bot;
+    }
+
+    /**
+     * Asks the player for its next command and sends it the result.
      *
      * @param player : The HumanPlayer instance being processed.
      */
     protected void processCommand(HumanPlayer player) {
-        String[] input = player.getNextAction().split(" ", 2);
+        String command = player.getNextAction();
+        String result = execute(command, player);
+        if (session != null){
+            try {
+                session.append(player == bot ? SessionStore.BOT : SessionStore.PLAYER, command);
+            } catch (IOException ioe) { // Keep playing, but stop saving
+                System.out.println("Session could not be saved, progress will be lost on exit.");
+                session = null;
+            }
+        }
+        player.printActionResults(result);
+    }
+
+    /**
+     * Assigns a command string to an action and carries it out.
+     *
+     * @param command : The command to carry out, as returned by getNextAction.
+     * @param player : The HumanPlayer instance carrying out the command.
+     * @return : The result of the action.
+     */
+    protected String execute(String command, HumanPlayer player) {
+        String[] input = command.split(" ", 2);
         switch (input[0]){
             case "HELLO":
-                player.printActionResults(hello());
-                break;
+                return hello();
             case "GOLD":
-                player.printActionResults(gold(player));
-                break;
+                return gold(player);
             case "MOVE":
-                player.printActionResults(move(input[1], player));
-                break;
+                return move(input[1], player);
             case "PICKUP":
-                player.printActionResults(pickup(player));
-                break;
+                return pickup(player);
             case "LOOK":
-                player.printActionResults(look(player));
-                break;
+                return look(player);
             case "QUIT":
-                player.printActionResults(quitGame(player));
-                break;
+                return quitGame(player);
             default : // Returns "Invalid" always
-                player.printActionResults(input[0]);
+                return input[0];
         }
     }
 
@@ -215,21 +326,42 @@ public class GameLogic {
      * Every input takes up a turn, even unsuccessful and unrecognised inputs,
      * so make sure you make the right moves!
      *
+     * Every turn is saved as it is played. If the game is interrupted, it is
+     * resumed from where it left off the next time the game is started.
+     *
      * @param args : Command line arguments, unused.
      */
 	public static void main(String[] args) {
-		GameLogic logic = new GameLogic();
+		SessionStore store = new SessionStore(new File(System.getProperty("user.dir"), SessionStore.DEFAULT_DIRECTORY));
+		GameLogic logic = null;
+		if (store.hasInterruptedSession()) {
+			try {
+				logic = store.recover();
+				logic.player.printActionResults("Resuming your interrupted game.");
+			} catch (IOException ioe) {
+				System.out.println("Interrupted game could not be recovered, starting a new one.");
+			}
+		}
+		if (logic == null) {
+			logic = new GameLogic();
+			try {
+				store.start(logic);
+			} catch (IOException ioe) {
+				System.out.println("Session could not be saved, progress will be lost on exit.");
+			}
+		}
 		logic.player.printActionResults("Welcome to the Dungeon of Doom!");
 		logic.player.printActionResults("You are now playing the Dungeon of Doom on the map:");
 		logic.player.printActionResults(logic.map.getMapName());
 		while (logic.running){
 		    logic.processCommand(logic.player);
 		    logic.processCommand(logic.bot);
-            if (Arrays.equals(logic.player.getPosition(), logic.bot.getPosition())){ // Capture check
+            if (logic.isCaptured()){ // Capture check
                 logic.player.printActionResults("The bot hath slain you!");
                 logic.quitGame(logic.player);
             }
         }
+        store.close();
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,561 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Answers long-range path queries over a map without searching every tile
+ * in between, in the style of HPA*.
+ *
+ * The map is split into square clusters. Wherever two neighbouring clusters
+ * can be walked between, a pair of entrance tiles is placed on either side
+ * of their border, and the walking distance between every pair of entrances
+ * within a cluster is worked out up front. A query then only searches the
+ * tiles of the start and goal clusters, and hops between entrances for the
+ * rest of the way.
+ *
+ * Distances are found on the assumption that players only move N, S, E and
+ * W. Start and goal tiles in the same or neighbouring clusters are searched
+ * tile by tile. Other queries are routed through fixed entrance tiles and
+ * can come out longer than the true shortest path, with no fixed bound. On
+ * generated maps they are usually within a tenth, but a short path a couple
+ * of clusters long can be half as long again. Queries may be made from many
+ * threads at once, but not while a tile is being updated.
+ *
+ */
+public class HierarchicalPathfinder {
+
+    /* Distance given to tiles that cannot be reached */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /* Border segments at least this long get an entrance at each end rather than one in the middle */
+    private static final int WIDE_ENTRANCE = 6;
+
+    /* The search overestimates the remaining distance by 1 / HEURISTIC_SLACK, trading at most
+       that much length over the best route through entrances for not searching every route
+       of equal Manhattan distance */
+    private static final int HEURISTIC_SLACK = 4;
+
+    /* Nearby queries search an area up to this many clusters across */
+    private static final int NEARBY_SPAN = 4;
+
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};
+
+    private final Map map;
+    private final int height;
+    private final int width;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterColumns;
+    private final int maxEntrances;
+    private final boolean[] open;
+    private final int[] entranceSlot;
+    private final int[][] entrances;
+    private final int[][] distances;
+
+    /* Scratch space for each thread's queries. Shared by every pathfinder, so that it does not keep them alive */
+    private static final ThreadLocal<Search> SEARCHES = new ThreadLocal<>();
+
+    /**
+     * Builds the pathfinder with 16x16 clusters.
+     *
+     * @param map : The map to find paths on.
+     */
+    public HierarchicalPathfinder(Map map) {
+        this(map, 16);
+    }
+
+    /**
+     * Builds the pathfinder, working out the clusters in parallel.
+     *
+     * @param map : The map to find paths on.
+     * @param clusterSize : Width and height of each cluster in tiles.
+     */
+    public HierarchicalPathfinder(Map map, int clusterSize) {
+        this.map = map;
+        this.clusterSize = clusterSize;
+        char[][] tiles = map.getMap();
+        height = tiles.length;
+        width = map.getMapDimensions()[1] + 1;
+        clusterRows = (height + clusterSize - 1) / clusterSize;
+        clusterColumns = (width + clusterSize - 1) / clusterSize;
+        maxEntrances = 4 * clusterSize; // At most one entrance per border tile
+        open = new boolean[height * width];
+        entranceSlot = new int[height * width];
+        Arrays.fill(entranceSlot, -1);
+        for (int x = 0; x < height; x++) {
+            for (int y = 0; y < tiles[x].length; y++) {
+                open[x * width + y] = tiles[x][y] != '#';
+            }
+        }
+        entrances = new int[clusterRows * clusterColumns][];
+        distances = new int[clusterRows * clusterColumns][];
+        IntStream.range(0, entrances.length).parallel().forEach(this::buildCluster);
+    }
+
+    /**
+     * Brings the pathfinder up to date after a tile on the map has changed.
+     * Only the tile's cluster is rebuilt, along with any neighbour it shares
+     * a border tile with.
+     *
+     * @param x : x co-ordinate of the changed tile.
+     * @param y : y co-ordinate of the changed tile.
+     * @return : Whether the change affected where players can walk.
+     */
+    public boolean update(int x, int y) {
+        char[] row = map.getMap()[x];
+        boolean nowOpen = y < row.length && row[y] != '#';
+        if (open[x * width + y] == nowOpen) {
+            return false; // Gold picked up, players moving and so on do not change any paths
+        }
+        open[x * width + y] = nowOpen;
+        int cx = x / clusterSize;
+        int cy = y / clusterSize;
+        buildCluster(cx * clusterColumns + cy);
+        for (int[] step : STEPS) { // Entrances on a shared border belong to both clusters
+            int nx = x + step[0];
+            int ny = y + step[1];
+            if (nx >= 0 && nx < height && ny >= 0 && ny < width
+                    && (nx / clusterSize != cx || ny / clusterSize != cy)) {
+                buildCluster((nx / clusterSize) * clusterColumns + ny / clusterSize);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the walking distance between two tiles.
+     *
+     * @param sx : x co-ordinate of the start tile.
+     * @param sy : y co-ordinate of the start tile.
+     * @param gx : x co-ordinate of the goal tile.
+     * @param gy : y co-ordinate of the goal tile.
+     * @return : Number of moves from start to goal, or -1 if it cannot be reached.
+     */
+    public int distance(int sx, int sy, int gx, int gy) {
+        Search search = search();
+        return run(search, sx * width + sy, gx * width + gy) ? search.best : -1;
+    }
+
+    /**
+     * Finds a path between two tiles as a list of waypoints. Each leg
+     * between waypoints stays within a single cluster, or steps over a
+     * border between two clusters. When start and goal are in the same or
+     * neighbouring clusters, the path may be the two tiles alone, joined
+     * by a route within one cluster of them.
+     *
+     * @param sx : x co-ordinate of the start tile.
+     * @param sy : y co-ordinate of the start tile.
+     * @param gx : x co-ordinate of the goal tile.
+     * @param gy : y co-ordinate of the goal tile.
+     * @return : The waypoints from start to goal inclusive, or null if it cannot be reached.
+     */
+    public List<int[]> findPath(int sx, int sy, int gx, int gy) {
+        Search search = search();
+        if (!run(search, sx * width + sy, gx * width + gy)) {
+            return null;
+        }
+        List<int[]> path = new ArrayList<>();
+        path.add(new int[]{gx, gy});
+        for (int node = search.bestNode; node >= 0; node = search.parent[node]) {
+            int tile = entrances[node / maxEntrances][node % maxEntrances];
+            path.add(0, new int[]{tile / width, tile % width});
+        }
+        path.add(0, new int[]{sx, sy});
+        return path;
+    }
+
+    /**
+     * Works out a cluster's entrances and the distances between them.
+     *
+     * @param cluster : Index of the cluster, row by row.
+     */
+    private void buildCluster(int cluster) {
+        int cx = cluster / clusterColumns;
+        int cy = cluster % clusterColumns;
+        int x0 = cx * clusterSize;
+        int y0 = cy * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, height) - 1;
+        int y1 = Math.min(y0 + clusterSize, width) - 1;
+
+        int[] found = new int[maxEntrances];
+        int count = 0;
+        count = addBorderEntrances(found, count, x0, y0, 0, 1, y1 - y0 + 1, -1, 0);  // North
+        count = addBorderEntrances(found, count, x1, y0, 0, 1, y1 - y0 + 1, 1, 0);   // South
+        count = addBorderEntrances(found, count, x0, y0, 1, 0, x1 - x0 + 1, 0, -1);  // West
+        count = addBorderEntrances(found, count, x0, y1, 1, 0, x1 - x0 + 1, 0, 1);   // East
+        int[] tiles = Arrays.copyOf(found, count);
+
+        int[] old = entrances[cluster];
+        if (old != null) {
+            for (int tile : old) {
+                entranceSlot[tile] = -1;
+            }
+        }
+        int[] table = new int[count * count];
+        int[] local = new int[clusterSize * clusterSize];
+        int[] queue = new int[clusterSize * clusterSize];
+        for (int i = 0; i < count; i++) {
+            entranceSlot[tiles[i]] = i;
+            clusterSearch(cluster, tiles[i], local, queue);
+            for (int j = 0; j < count; j++) {
+                table[i * count + j] = local[localIndex(tiles[j])];
+            }
+        }
+        entrances[cluster] = tiles;
+        distances[cluster] = table;
+    }
+
+    /**
+     * Adds the entrances along one border of a cluster, on this cluster's side.
+     * Each run of tiles that are open on both sides of the border gets one
+     * entrance in the middle, or one at each end if it is wide.
+     *
+     * @param found : Entrance tiles found so far.
+     * @param count : Number of entrance tiles found so far.
+     * @param x : x co-ordinate of the first tile of the border.
+     * @param y : y co-ordinate of the first tile of the border.
+     * @param dx : Step in x along the border.
+     * @param dy : Step in y along the border.
+     * @param length : Length of the border in tiles.
+     * @param ox : Step in x across the border.
+     * @param oy : Step in y across the border.
+     * @return : Number of entrance tiles found including this border's.
+     */
+    private int addBorderEntrances(int[] found, int count, int x, int y, int dx, int dy, int length, int ox, int oy) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean crossable = i < length && isOpen(x + i * dx, y + i * dy) && isOpen(x + i * dx + ox, y + i * dy + oy);
+            if (crossable && runStart < 0) {
+                runStart = i;
+            } else if (!crossable && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+                    count = addEntrance(found, count, (x + runStart * dx) * width + y + runStart * dy);
+                    count = addEntrance(found, count, (x + runEnd * dx) * width + y + runEnd * dy);
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    count = addEntrance(found, count, (x + middle * dx) * width + y + middle * dy);
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    }
+
+    private int addEntrance(int[] found, int count, int tile) {
+        for (int i = 0; i < count; i++) {
+            if (found[i] == tile) { // Corner tiles can be entrances on two borders
+                return count;
+            }
+        }
+        found[count] = tile;
+        return count + 1;
+    }
+
+    private boolean isOpen(int x, int y) {
+        return x >= 0 && x < height && y >= 0 && y < width && open[x * width + y];
+    }
+
+    private int localIndex(int tile) {
+        return (tile / width % clusterSize) * clusterSize + tile % width % clusterSize;
+    }
+
+    /**
+     * Breadth first search from a tile that does not leave its cluster.
+     *
+     * @param cluster : Index of the cluster to search.
+     * @param from : The tile to search from.
+     * @param local : Filled with the distance to each tile of the cluster.
+     * @param queue : Scratch space at least the size of a cluster.
+     */
+    private void clusterSearch(int cluster, int from, int[] local, int[] queue) {
+        int x0 = (cluster / clusterColumns) * clusterSize;
+        int y0 = (cluster % clusterColumns) * clusterSize;
+        int x1 = Math.min(x0 + clusterSize, height);
+        int y1 = Math.min(y0 + clusterSize, width);
+        Arrays.fill(local, UNREACHABLE);
+        local[localIndex(from)] = 0;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile / width;
+            int y = tile % width;
+            int next = local[localIndex(tile)] + 1;
+            for (int[] step : STEPS) {
+                int nx = x + step[0];
+                int ny = y + step[1];
+                if (nx >= x0 && nx < x1 && ny >= y0 && ny < y1 && open[nx * width + ny]) {
+                    int index = (nx - x0) * clusterSize + ny - y0;
+                    if (local[index] == UNREACHABLE) {
+                        local[index] = next;
+                        queue[tail++] = nx * width + ny;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if two clusters are the same or touch, including diagonally.
+     *
+     * @param a : Index of the first cluster.
+     * @param b : Index of the second cluster.
+     * @return : Whether the clusters are within one cluster of each other.
+     */
+    private boolean isNearby(int a, int b) {
+        return Math.abs(a / clusterColumns - b / clusterColumns) <= 1
+                && Math.abs(a % clusterColumns - b % clusterColumns) <= 1;
+    }
+
+    private int clusterOf(int tile) {
+        return (tile / width / clusterSize) * clusterColumns + tile % width / clusterSize;
+    }
+
+    private int manhattan(int from, int to) {
+        return Math.abs(from / width - to / width) + Math.abs(from % width - to % width);
+    }
+
+    /**
+     * Returns this thread's scratch space, replacing it if it is too small
+     * for this pathfinder.
+     *
+     * @return : Scratch space for a query.
+     */
+    private Search search() {
+        Search search = SEARCHES.get();
+        int nodes = entrances.length * maxEntrances;
+        if (search == null || search.cost.length < nodes || search.queue.length < clusterSize * clusterSize) {
+            search = new Search(nodes, clusterSize * clusterSize);
+            SEARCHES.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * Searches from start to goal, leaving the result in the search's best
+     * and bestNode.
+     *
+     * @param s : Scratch space to search with.
+     * @param start : The start tile.
+     * @param goal : The goal tile.
+     * @return : Whether the goal can be reached.
+     */
+    private boolean run(Search s, int start, int goal) {
+        if (!open[start] || !open[goal]) {
+            return false;
+        }
+        s.generation++;
+        s.heapSize = 0;
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+        clusterSearch(startCluster, start, s.startLocal, s.queue);
+        clusterSearch(goalCluster, goal, s.goalLocal, s.queue);
+        s.best = isNearby(startCluster, goalCluster) ? nearbySearch(s, start, goal) : UNREACHABLE;
+        s.bestNode = -1;
+
+        int[] goalTiles = entrances[goalCluster];
+        boolean goalConnected = false;
+        for (int tile : goalTiles) {
+            goalConnected |= s.goalLocal[localIndex(tile)] != UNREACHABLE;
+        }
+        if (!goalConnected) { // Walled in within its own cluster
+            return s.best != UNREACHABLE;
+        }
+
+        int[] startTiles = entrances[startCluster];
+        for (int i = 0; i < startTiles.length; i++) {
+            int d = s.startLocal[localIndex(startTiles[i])];
+            if (d != UNREACHABLE) {
+                relax(s, startCluster * maxEntrances + i, startTiles[i], d, -1, goal);
+            }
+        }
+        while (s.heapSize > 0) {
+            long key = s.heap[0];
+            int node = s.pop();
+            if ((int) (key >>> 32) >= s.best) {
+                break; // Nothing left can beat the best route found
+            }
+            int g = s.cost[node];
+            if (Integer.MAX_VALUE - (int) key != g) {
+                continue; // Superseded by a cheaper entry
+            }
+            s.closed[node] = s.generation;
+            int cluster = node / maxEntrances;
+            int slot = node % maxEntrances;
+            int[] tiles = entrances[cluster];
+            int tile = tiles[slot];
+            if (cluster == goalCluster) {
+                int d = s.goalLocal[localIndex(tile)];
+                if (d != UNREACHABLE && g + d < s.best) {
+                    s.best = g + d;
+                    s.bestNode = node;
+                }
+            }
+            int[] table = distances[cluster];
+            for (int j = 0; j < tiles.length; j++) { // Across the cluster
+                int d = table[slot * tiles.length + j];
+                if (j != slot && d != UNREACHABLE) {
+                    relax(s, cluster * maxEntrances + j, tiles[j], g + d, node, goal);
+                }
+            }
+            int x = tile / width;
+            int y = tile % width;
+            for (int[] step : STEPS) { // Over the border
+                int nx = x + step[0];
+                int ny = y + step[1];
+                if (nx >= 0 && nx < height && ny >= 0 && ny < width) {
+                    int neighbour = nx * width + ny;
+                    int neighbourSlot = entranceSlot[neighbour];
+                    int neighbourCluster = clusterOf(neighbour);
+                    if (neighbourSlot >= 0 && neighbourCluster != cluster) {
+                        relax(s, neighbourCluster * maxEntrances + neighbourSlot, neighbour, g + 1, node, goal);
+                    }
+                }
+            }
+        }
+        return s.best != UNREACHABLE;
+    }
+
+    /**
+     * Breadth first search between two tiles in the same or neighbouring
+     * clusters, kept within those clusters and one cluster around them.
+     * Routing through entrance tiles adds the most, relatively, to short
+     * paths, so these are found tile by tile instead.
+     *
+     * @param s : Scratch space to search with.
+     * @param start : The start tile.
+     * @param goal : The goal tile.
+     * @return : The distance within the searched area, or UNREACHABLE.
+     */
+    private int nearbySearch(Search s, int start, int goal) {
+        int x0 = Math.max(0, (Math.min(start / width, goal / width) / clusterSize - 1) * clusterSize);
+        int y0 = Math.max(0, (Math.min(start % width, goal % width) / clusterSize - 1) * clusterSize);
+        int x1 = Math.min(height, (Math.max(start / width, goal / width) / clusterSize + 2) * clusterSize);
+        int y1 = Math.min(width, (Math.max(start % width, goal % width) / clusterSize + 2) * clusterSize);
+        int span = y1 - y0;
+        Arrays.fill(s.nearby, 0, (x1 - x0) * span, UNREACHABLE);
+        s.nearby[(start / width - x0) * span + start % width - y0] = 0;
+        s.nearbyQueue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int tile = s.nearbyQueue[head++];
+            int x = tile / width;
+            int y = tile % width;
+            int next = s.nearby[(x - x0) * span + y - y0] + 1;
+            if (tile == goal) {
+                return next - 1;
+            }
+            for (int[] step : STEPS) {
+                int nx = x + step[0];
+                int ny = y + step[1];
+                if (nx >= x0 && nx < x1 && ny >= y0 && ny < y1 && open[nx * width + ny]) {
+                    int index = (nx - x0) * span + ny - y0;
+                    if (s.nearby[index] == UNREACHABLE) {
+                        s.nearby[index] = next;
+                        s.nearbyQueue[tail++] = nx * width + ny;
+                    }
+                }
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    private void relax(Search s, int node, int tile, int g, int from, int goal) {
+        if (s.seen[node] == s.generation && (s.cost[node] <= g || s.closed[node] == s.generation)) {
+            return; // Reopening nodes is not worth it when the heuristic is inflated anyway
+        }
+        s.seen[node] = s.generation;
+        s.cost[node] = g;
+        s.parent[node] = from;
+        int h = manhattan(tile, goal);
+        s.push(g + h + h / HEURISTIC_SLACK, g, node);
+    }
+
+    /**
+     * Scratch space for queries, reused so that queries do not allocate.
+     * Abstract nodes are numbered cluster * maxEntrances + slot.
+     */
+    private static class Search {
+        final int[] cost;
+        final int[] parent;
+        final int[] seen;
+        final int[] closed;
+        final int[] startLocal;
+        final int[] goalLocal;
+        final int[] queue;
+        final int[] nearby;
+        final int[] nearbyQueue;
+        long[] heap = new long[1024];
+        int[] heapNodes = new int[1024];
+        int heapSize;
+        int generation;
+        int best;
+        int bestNode;
+
+        /**
+         * Allocates the scratch space.
+         *
+         * @param nodes : Number of abstract nodes, clusters * maxEntrances.
+         * @param clusterArea : Number of tiles in a cluster.
+         */
+        Search(int nodes, int clusterArea) {
+            cost = new int[nodes];
+            parent = new int[nodes];
+            seen = new int[nodes];
+            closed = new int[nodes];
+            startLocal = new int[clusterArea];
+            goalLocal = new int[clusterArea];
+            queue = new int[clusterArea];
+            nearby = new int[NEARBY_SPAN * NEARBY_SPAN * clusterArea];
+            nearbyQueue = new int[NEARBY_SPAN * NEARBY_SPAN * clusterArea];
+        }
+
+        void push(int f, int g, int node) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            }
+            long key = ((long) f << 32) | (Integer.MAX_VALUE - g); // Ties go to the node furthest along
+            int i = heapSize++;
+            while (i > 0 && heap[(i - 1) >>> 1] > key) {
+                heap[i] = heap[(i - 1) >>> 1];
+                heapNodes[i] = heapNodes[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = key;
+            heapNodes[i] = node;
+        }
+
+
+        int pop() {
+            int top = heapNodes[0];
+            long last = heap[--heapSize];
+            int lastNode = heapNodes[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                heapNodes[i] = heapNodes[child];
+                i = child;
+            }
+            heap[i] = last;
+            heapNodes[i] = lastNode;
+            return top;
+        }
+
+    }
+
+}
@@ -55,6 +55,15 @@ public class HumanPlayer {
         return gold;
     }
 
+    /**
+     * Sets the amount of gold the player owns, as when restoring a saved game.
+     *
+     * @param gold : Amount of gold the player has.
+     */
+    protected void setGold(int gold){
+        this.gold = gold;
+    }
+
     /**
      * Add 1 gold to the player's total.
      */
@@ -153,7 +162,17 @@ public class HumanPlayer {
      * @return : Processed output or Invalid if the @param command is wrong.
      */
     protected String getNextAction() {
-        String[] input = getInputFromConsole().split(" ");
+        return parseAction(getInputFromConsole());
+    }
+
+    /**
+     * Checks a line of input against the protocol and turns it into a command.
+     *
+     * @param line : The upper case line the player entered.
+     * @return : The command, or Invalid if the line is not a valid command.
+     */
+    protected String parseAction(String line) {
+        String[] input = line.split(" ");
         if (input[0].equals("MOVE") && input.length == 2 && OPERANDS.contains(input[1])){ // MOVE check
             return input[0] + " " + input[1];
         }
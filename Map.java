@@ -63,6 +63,34 @@ public class Map {
 		}
 	}
 
+	/**
+	 * Constructor that builds a map from its parts, as when restoring a saved game.
+	 *
+	 * @param mapName : The name of the map.
+	 * @param goldRequired : Gold required for the human player to win.
+	 * @param map : The tiles of the map, which are used as is and not copied.
+	 */
+	public Map(String mapName, int goldRequired, char[][] map) {
+		this.mapName = mapName;
+		this.goldRequired = goldRequired;
+		this.map = map;
+	}
+
+	/**
+	 * Copy constructor, so that a loaded map can be reused for many games
+	 * without them seeing each other's moves.
+	 *
+	 * @param other : The map to copy.
+	 */
+	public Map(Map other) {
+		mapName = other.mapName;
+		goldRequired = other.goldRequired;
+		map = new char[other.map.length][];
+		for (int i = 0; i < map.length; i++) {
+			map[i] = other.map[i].clone();
+		}
+	}
+
     /**
 	 * Returns the amount of gold a player needs to own
 	 * to exit a map with a win.
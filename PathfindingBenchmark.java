@@ -0,0 +1,219 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares path query latency of the HierarchicalPathfinder against a
+ * plain A* search over every tile, on generated maps of growing size.
+ *
+ */
+public class PathfindingBenchmark {
+
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Generates a square map with a wall around the edge and a proportion
+     * of the tiles inside randomly walled off.
+     *
+     * @param size : Width and height of the map in tiles.
+     * @param walls : Proportion of inside tiles that are walls.
+     * @param rand : Random source for the walls.
+     * @return : The generated map.
+     */
+    protected static Map generateMap(int size, double walls, Random rand) {
+        char[][] tiles = new char[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                boolean edge = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+                tiles[x][y] = edge || rand.nextDouble() < walls ? '#' : '.';
+            }
+        }
+        return new Map("Generated " + size + "x" + size, 0, tiles);
+    }
+
+    /**
+     * A* over every tile of a map, moving N, S, E and W, with the
+     * Manhattan distance as its heuristic.
+     */
+    protected static class FlatAStar {
+        private final char[][] tiles;
+        private final int width;
+        private final int[] cost;
+        private final int[] seen;
+        private long[] heap = new long[1024];
+        private int[] heapNodes = new int[1024];
+        private int heapSize;
+        private int generation;
+
+        /**
+         * Builds the search, allocating its scratch space up front so
+         * queries are timed without it.
+         *
+         * @param map : The map to search.
+         */
+        FlatAStar(Map map) {
+            tiles = map.getMap();
+            width = map.getMapDimensions()[1] + 1;
+            cost = new int[tiles.length * width];
+            seen = new int[tiles.length * width];
+        }
+
+        /**
+         * Returns the shortest walking distance between two tiles.
+         *
+         * @return : Number of moves from start to goal, or -1 if it cannot be reached.
+         */
+        int distance(int sx, int sy, int gx, int gy) {
+            generation++;
+            heapSize = 0;
+            int start = sx * width + sy;
+            cost[start] = 0;
+            seen[start] = generation;
+            push(Math.abs(sx - gx) + Math.abs(sy - gy), 0, start);
+            while (heapSize > 0) {
+                long key = heap[0];
+                int tile = pop();
+                int g = cost[tile];
+                if (Integer.MAX_VALUE - (int) key != g) {
+                    continue; // Superseded by a cheaper entry
+                }
+                int x = tile / width;
+                int y = tile % width;
+                if (x == gx && y == gy) {
+                    return g;
+                }
+                for (int[] step : STEPS) {
+                    int nx = x + step[0];
+                    int ny = y + step[1];
+                    if (nx < 0 || nx >= tiles.length || ny < 0 || ny >= tiles[nx].length || tiles[nx][ny] == '#') {
+                        continue;
+                    }
+                    int next = nx * width + ny;
+                    if (seen[next] != generation || cost[next] > g + 1) {
+                        seen[next] = generation;
+                        cost[next] = g + 1;
+                        push(g + 1 + Math.abs(nx - gx) + Math.abs(ny - gy), g + 1, next);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private void push(int f, int g, int node) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            }
+            long key = ((long) f << 32) | (Integer.MAX_VALUE - g); // Ties go to the node furthest along
+            int i = heapSize++;
+            while (i > 0 && heap[(i - 1) >>> 1] > key) {
+                heap[i] = heap[(i - 1) >>> 1];
+                heapNodes[i] = heapNodes[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = key;
+            heapNodes[i] = node;
+        }
+
+
+        private int pop() {
+            int top = heapNodes[0];
+            long last = heap[--heapSize];
+            int lastNode = heapNodes[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                heapNodes[i] = heapNodes[child];
+                i = child;
+            }
+            heap[i] = last;
+            heapNodes[i] = lastNode;
+            return top;
+        }
+
+    }
+
+    /**
+     * Picks a random floor tile.
+     *
+     * @param map : The map to pick from.
+     * @param rand : Random source to pick with.
+     * @return : The co-ords of the tile.
+     */
+    private static int[] randomFloor(Map map, Random rand) {
+        char[][] tiles = map.getMap();
+        int x;
+        int y;
+        do {
+            x = rand.nextInt(tiles.length);
+            y = rand.nextInt(tiles[x].length);
+        } while (tiles[x][y] == '#');
+        return new int[]{x, y};
+    }
+
+    /**
+     * Runs the benchmark and prints a table of build time and mean query
+     * latency for each map size.
+     *
+     * Usage: java PathfindingBenchmark [queries per size] [cluster size]
+     *
+     * @param args : Command line arguments as above.
+     */
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int clusterSize = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int[] sizes = {64, 128, 256, 512, 1024, 2048, 4096};
+        Random rand = new Random(42);
+
+        System.out.println(String.format("%10s %12s %12s %12s %10s %10s",
+                "Tiles", "Build (ms)", "HPA* (us)", "A* (us)", "Speedup", "Length"));
+        for (int size : sizes) {
+            Map map = generateMap(size, 0.2, rand);
+            long start = System.nanoTime();
+            HierarchicalPathfinder hpa = new HierarchicalPathfinder(map, clusterSize);
+            double buildMillis = (System.nanoTime() - start) / 1e6;
+            FlatAStar flat = new FlatAStar(map);
+
+            int[][] pairs = new int[queries][];
+            for (int i = 0; i < queries; i++) {
+                int[] from = randomFloor(map, rand);
+                int[] to = randomFloor(map, rand);
+                pairs[i] = new int[]{from[0], from[1], to[0], to[1]};
+            }
+            for (int[] p : pairs) { // Warm up both before timing
+                hpa.distance(p[0], p[1], p[2], p[3]);
+                flat.distance(p[0], p[1], p[2], p[3]);
+            }
+
+            long hpaNanos = 0;
+            long flatNanos = 0;
+            long hpaLength = 0;
+            long flatLength = 0;
+            for (int[] p : pairs) {
+                long t0 = System.nanoTime();
+                int hpaDistance = hpa.distance(p[0], p[1], p[2], p[3]);
+                long t1 = System.nanoTime();
+                int flatDistance = flat.distance(p[0], p[1], p[2], p[3]);
+                long t2 = System.nanoTime();
+                hpaNanos += t1 - t0;
+                flatNanos += t2 - t1;
+                if (hpaDistance >= 0 && flatDistance >= 0) {
+                    hpaLength += hpaDistance;
+                    flatLength += flatDistance;
+                }
+            }
+            System.out.println(String.format("%10d %12.1f %12.1f %12.1f %9.1fx %9.3fx",
+                    (long) size * size, buildMillis, hpaNanos / 1e3 / queries, flatNanos / 1e3 / queries,
+                    (double) flatNanos / hpaNanos, (double) hpaLength / Math.max(1, flatLength)));
+        }
+    }
+}
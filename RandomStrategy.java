@@ -0,0 +1,47 @@
+import java.util.Random;
+
+/**
+ * Ignores the map entirely and wanders in a random direction each turn.
+ *
+ */
+public class RandomStrategy implements BotStrategy {
+
+    private final String[] moves = {"MOVE N","MOVE S","MOVE E","MOVE W"};
+
+    /**
+     *
+     * @return : The strategy's name.
+     */
+    public String getName(){
+        return "Random";
+    }
+
+    /**
+     *
+     * @return : Whether the strategy can play as the chaser.
+     */
+    public boolean canChase(){
+        return true;
+    }
+
+    /**
+     *
+     * @return : Whether the strategy can play as the runner.
+     */
+    public boolean canRun(){
+        return true;
+    }
+
+    /**
+     * Picks one of the four moves at random.
+     *
+     * @param map : The 5x5 map array, unused.
+     * @param target : The character of the opposing player, unused.
+     * @param rand : Random source used to pick the move.
+     * @return : A random MOVE command.
+     */
+    public String decideMove(String[] map, char target, Random rand){
+        return moves[rand.nextInt(moves.length)];
+    }
+
+}
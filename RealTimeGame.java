@@ -0,0 +1,210 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Plays the game in real time rather than in turns. The game ticks at a
+ * fixed rate, and on each tick the player's latest queued command is
+ * carried out and every bot makes a move.
+ *
+ * Bots decide their moves concurrently and have until the deadline to do
+ * so. A bot that misses the deadline makes a random move instead. Its late
+ * decision is thrown away once it arrives, and the bot starts again with a
+ * fresh LOOK.
+ *
+ */
+public class RealTimeGame {
+
+    private final String[] moves = {"MOVE N","MOVE S","MOVE E","MOVE W"};
+
+    private final GameLogic logic;
+    private final HumanPlayer player;
+    private final List<BotPlayer> bots = new ArrayList<>();
+    private final List<Future<String>> pending = new ArrayList<>();
+    private final List<Boolean> late = new ArrayList<>();
+    private final Queue<String> inputs = new ConcurrentLinkedQueue<>();
+    private final Random rand = new Random();
+    private final long periodNanos;
+    private final long deadlineNanos;
+    private final TickMetrics metrics;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService botPool;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    /**
+     * Builds a real-time game around an existing one, adding extra bots.
+     *
+     * @param logic : The game to play in real time.
+     * @param extraBots : Number of bots to add on top of the game's own bot.
+     * @param periodMillis : Milliseconds between ticks.
+     * @param deadlineMillis : Milliseconds into a tick that bots have to decide.
+     */
+    public RealTimeGame(GameLogic logic, int extraBots, long periodMillis, long deadlineMillis) {
+        this.logic = logic;
+        this.player = logic.getPlayer();
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.metrics = new TickMetrics(periodNanos);
+        bots.add(logic.getBot());
+        for (int i = 0; i < extraBots; i++) {
+            BotPlayer bot = new BotPlayer();
+            logic.spawn(bot, rand);
+            bots.add(bot);
+        }
+        for (int i = 0; i < bots.size(); i++) {
+            pending.add(null);
+            late.add(false);
+        }
+        botPool = Executors.newFixedThreadPool(Math.min(bots.size(), Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Queues a line of input from the player to be carried out on a later tick.
+     *
+     * @param line : The line the player entered.
+     */
+    protected void submitInput(String line) {
+        inputs.offer(player.parseAction(line.toUpperCase()));
+    }
+
+    /**
+     * Carries out one tick of the game.
+     */
+    protected void tick() {
+        long start = System.nanoTime();
+        String command = inputs.poll();
+        if (command != null) {
+            player.printActionResults(logic.execute(command, player));
+            checkCapture();
+        }
+        for (int i = 0; i < bots.size(); i++) {
+            if (late.get(i) && pending.get(i).isDone()) { // Its view is stale by now, so drop it and look again
+                pending.set(i, null);
+                late.set(i, false);
+                bots.get(i).resetTurn();
+            }
+            if (pending.get(i) == null) { // A bot still working on a late decision is not asked again
+                pending.set(i, botPool.submit(bots.get(i)::getNextAction));
+            }
+        }
+        long deadline = start + deadlineNanos;
+        for (int i = 0; i < bots.size() && logic.isRunning(); i++) {
+            BotPlayer bot = bots.get(i);
+            if (late.get(i)) {
+                logic.execute(moves[rand.nextInt(moves.length)], bot);
+            } else {
+                try {
+                    String botCommand = pending.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    pending.set(i, null);
+                    bot.printActionResults(logic.execute(botCommand, bot));
+                } catch (TimeoutException te) { // Too slow, fall back to a move that needs no thought
+                    metrics.recordMissedDeadline();
+                    late.set(i, true);
+                    logic.execute(moves[rand.nextInt(moves.length)], bot);
+                } catch (ExecutionException ee) {
+                    pending.set(i, null);
+                    bot.resetTurn();
+                    logic.execute(moves[rand.nextInt(moves.length)], bot);
+                } catch (InterruptedException ie) { // Being shut down, so leave the remaining bots be
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            checkCapture();
+        }
+        metrics.recordTick(start, System.nanoTime());
+        if (!logic.isRunning()) {
+            ticker.shutdown();
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Ends the game if the player has been caught.
+     */
+    protected void checkCapture() {
+        if (logic.isRunning() && isCaptured()) {
+            player.printActionResults("The bot hath slain you!");
+            logic.quitGame(player);
+        }
+    }
+
+    /**
+     * Checks if any bot has caught the player.
+     *
+     * @return : Whether a bot shares a tile with the player.
+     */
+    protected boolean isCaptured() {
+        for (BotPlayer bot : bots) {
+            if (bot.getPosition()[0] == player.getPosition()[0] && bot.getPosition()[1] == player.getPosition()[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts ticking and blocks until the game is over.
+     *
+     * @return : The metrics recorded while playing.
+     * @throws InterruptedException : If interrupted while waiting for the game to end.
+     */
+    public TickMetrics play() throws InterruptedException {
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (RuntimeException re) { // An escaping exception would silently cancel the schedule
+                re.printStackTrace();
+                ticker.shutdown();
+                finished.countDown();
+            }
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+        finished.await();
+        ticker.awaitTermination(1, TimeUnit.SECONDS);
+        botPool.shutdownNow();
+        return metrics;
+    }
+
+    /**
+     * Plays the game in real time on the console.
+     *
+     * Commands are the same as in the turn based game, but are carried out
+     * on the next tick rather than waiting for the bots, and the bots move
+     * whether or not the player has entered anything.
+     *
+     * Usage: java RealTimeGame [tick milliseconds] [extra bots]
+     *
+     * @param args : Command line arguments as above.
+     * @throws InterruptedException : If interrupted while playing.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long periodMillis = args.length > 0 ? Long.parseLong(args[0]) : 50;
+        int extraBots = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        GameLogic logic = new GameLogic();
+        RealTimeGame game = new RealTimeGame(logic, extraBots, periodMillis, periodMillis / 2);
+        logic.getPlayer().printActionResults("Welcome to the real-time Dungeon of Doom!");
+
+        Thread reader = new Thread(() -> {
+            Scanner s = new Scanner(System.in);
+            while (s.hasNextLine()) {
+                game.submitInput(s.nextLine());
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+
+        TickMetrics metrics = game.play();
+        System.out.println(metrics);
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.Random;
+
+/**
+ * A bot that takes the place of the human player, so that two strategies
+ * can be played against each other without any console input.
+ *
+ * It shows as P on the map, plays against the bot B, and always picks up
+ * gold when standing on it.
+ *
+ */
+public class RunnerPlayer extends BotPlayer {
+
+    /**
+     * Builds a runner that uses the given strategy to decide its moves.
+     *
+     * @param strategy : The strategy deciding the runner's moves.
+     * @param rand : Random source handed to the strategy.
+     */
+    public RunnerPlayer(BotStrategy strategy, Random rand){
+        super(strategy, rand);
+    }
+
+    /**
+     * Picks up gold when standing on it, otherwise defers to the strategy.
+     *
+     * @return : The next command for the runner to execute.
+     */
+    protected String getNextAction(){
+        if (getLiftedChar() == 'G'){
+            setNextCommand("PICKUP");
+            return "PICKUP";
+        }
+        return super.getNextAction();
+    }
+
+    /**
+     *
+     * @return : The human player character.
+     */
+    protected char getPlayerChar(){
+        return 'P';
+    }
+
+    /**
+     *
+     * @return : The bot player character.
+     */
+    protected char getTargetChar(){
+        return 'B';
+    }
+
+}
@@ -0,0 +1,344 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a game as it is played so that it can be resumed after the game
+ * is interrupted.
+ *
+ * Every command is appended to a memory-mapped journal. The journal is not
+ * synced on every command, instead a background thread syncs whatever has
+ * been appended every few milliseconds, so a turn never waits on the disk.
+ * Every so often, and whenever the journal fills up, the whole game is
+ * written to a checkpoint and the journal starts again, which bounds how
+ * much has to be replayed on recovery.
+ *
+ * Journal layout: a header of state (int) and base sequence number (long),
+ * then records of payload length (int), sequence number (long), actor
+ * (byte), command (UTF-8) and CRC32 (int) of the sequence number onwards.
+ *
+ */
+public class SessionStore {
+
+    /* Directory, under the directory of execution, that sessions are saved to */
+    protected static final String DEFAULT_DIRECTORY = "session";
+
+    /* Actors a journaled command can come from */
+    protected static final byte PLAYER = 0;
+    protected static final byte BOT = 1;
+
+    private static final int CHECKPOINT_MAGIC = 0x444F4443; // "DODC"
+    private static final int STATE_OPEN = 0x444F444F;       // "DODO"
+    private static final int STATE_CLOSED = 0x444F4458;     // "DODX"
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_OVERHEAD = 4 + 8 + 1 + 4;
+
+    private final File checkpointFile;
+    private final File journalFile;
+    private final int journalSize;
+    private final long checkpointInterval;
+    private final long flushMillis;
+
+    private GameLogic logic;
+    private FileChannel channel;
+    private MappedByteBuffer journal;
+    private final CRC32 crc = new CRC32();
+    private long seq;
+    private long checkpointSeq;
+    private volatile long appendedSeq;
+    private Thread flusher;
+
+    /**
+     * Builds a store with a 16MB journal that checkpoints every 100000
+     * commands and syncs the journal every 10 milliseconds.
+     *
+     * @param directory : The directory to save the session in.
+     */
+    public SessionStore(File directory) {
+        this(directory, 16 << 20, 100_000, 10);
+    }
+
+    /**
+     * Builds a store.
+     *
+     * @param directory : The directory to save the session in.
+     * @param journalSize : Size of the journal in bytes.
+     * @param checkpointInterval : Commands between checkpoints.
+     * @param flushMillis : Milliseconds between syncs of the journal.
+     */
+    public SessionStore(File directory, int journalSize, long checkpointInterval, long flushMillis) {
+        this.checkpointFile = new File(directory, "checkpoint");
+        this.journalFile = new File(directory, "journal");
+        this.journalSize = journalSize;
+        this.checkpointInterval = checkpointInterval;
+        this.flushMillis = flushMillis;
+    }
+
+    /**
+     * Checks if a game was saved but never finished.
+     *
+     * @return : Whether there is a session to recover.
+     */
+    protected boolean hasInterruptedSession() {
+        if (!checkpointFile.isFile() || journalFile.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(journalFile))) {
+            return in.readInt() == STATE_OPEN;
+        } catch (IOException ioe) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts saving a new game, replacing any earlier session.
+     *
+     * @param logic : The game to save.
+     * @throws IOException : If the session files cannot be written.
+     */
+    protected void start(GameLogic logic) throws IOException {
+        this.logic = logic;
+        seq = 0;
+        openJournal(true);
+        checkpoint();
+        startFlusher();
+        logic.setSession(this);
+    }
+
+    /**
+     * Restores an interrupted game from its latest checkpoint, replays the
+     * journal on top of it and carries on saving it.
+     *
+     * @return : The restored game.
+     * @throws IOException : If the session files cannot be read or written.
+     */
+    protected GameLogic recover() throws IOException {
+        logic = readCheckpoint();
+        openJournal(false);
+        HumanPlayer player = logic.getPlayer();
+        BotPlayer bot = logic.getBot();
+        long expected = journal.getLong(4) + 1;
+        int position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= journalSize) {
+            int length = journal.getInt(position);
+            if (length <= 0 || position + RECORD_OVERHEAD + length > journalSize) {
+                break;
+            }
+            long recordSeq = journal.getLong(position + 4);
+            crc.reset();
+            crc.update(journal.slice(position + 4, 9 + length));
+            if (recordSeq != expected || (int) crc.getValue() != journal.getInt(position + 13 + length)) {
+                break; // End of the journal, or a record torn by the interruption
+            }
+            if (recordSeq > checkpointSeq) { // Older records are already in the checkpoint
+                byte[] command = new byte[length];
+                journal.get(position + 13, command);
+                logic.execute(new String(command, StandardCharsets.UTF_8), journal.get(position + 12) == BOT ? bot : player);
+            }
+            expected++;
+            position += RECORD_OVERHEAD + length;
+        }
+        seq = Math.max(checkpointSeq, expected - 1);
+        checkpoint(); // Compact, so the next recovery does not replay this again
+        startFlusher();
+        logic.setSession(this);
+        return logic;
+    }
+
+    /**
+     * Journals a command that has just been carried out. The command is
+     * synced to disk by the flusher shortly afterwards.
+     *
+     * @param actor : PLAYER or BOT.
+     * @param command : The command that was carried out.
+     * @throws IOException : If a checkpoint was due and could not be written.
+     */
+    protected void append(byte actor, String command) throws IOException {
+        byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        int position = journal.position();
+        seq++;
+        if (position + RECORD_OVERHEAD + bytes.length > journalSize) {
+            // The command has already been carried out, so the checkpoint covers it and the
+            // journal can start again without it
+            checkpoint();
+            return;
+        }
+        journal.putLong(position + 4, seq);
+        journal.put(position + 12, actor);
+        journal.put(position + 13, bytes);
+        crc.reset();
+        crc.update(journal.slice(position + 4, 9 + bytes.length));
+        journal.putInt(position + 13 + bytes.length, (int) crc.getValue());
+        journal.putInt(position, bytes.length); // Written last, so a half written record reads as the end
+        journal.position(position + RECORD_OVERHEAD + bytes.length);
+        appendedSeq = seq;
+        if (seq - checkpointSeq >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Marks the session as finished, so it is not recovered next time.
+     */
+    protected void close() {
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journal != null) {
+            journal.putInt(0, STATE_CLOSED);
+            journal.force();
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                System.out.println("Session could not be closed cleanly.");
+            }
+        }
+        if (logic != null) {
+            logic.setSession(null);
+        }
+    }
+
+    /**
+     * Maps the journal file into memory, creating it if needed.
+     *
+     * @param fresh : Whether to empty the journal first. A new session starts counting
+     *                from 0 again, so an earlier game's records could otherwise be read
+     *                back as its own.
+     * @throws IOException : If the journal cannot be opened.
+     */
+    private void openJournal(boolean fresh) throws IOException {
+        if (channel != null) { // Left open by a recovery that failed part way
+            channel.close();
+        }
+        journalFile.getParentFile().mkdirs();
+        channel = FileChannel.open(journalFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (fresh) {
+            channel.truncate(0);
+            channel.force(true); // Otherwise a crash could bring the old records back
+        }
+        journal = channel.map(FileChannel.MapMode.READ_WRITE, 0, journalSize);
+    }
+
+    /**
+     * Writes the whole game to the checkpoint file and starts the journal
+     * again from the checkpoint's sequence number.
+     *
+     * @throws IOException : If the checkpoint cannot be written.
+     */
+    private void checkpoint() throws IOException {
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        FileOutputStream file = new FileOutputStream(temp);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            Map map = logic.getMap();
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(seq);
+            out.writeUTF(map.getMapName());
+            out.writeInt(map.getGoldRequired());
+            out.writeInt(map.getMap().length);
+            for (char[] row : map.getMap()) {
+                byte[] bytes = new String(row).getBytes(StandardCharsets.ISO_8859_1);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            writePlayer(out, logic.getPlayer());
+            writePlayer(out, logic.getBot());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp.toPath(), checkpointFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointSeq = seq;
+
+        // A crash before this point replays the old journal, skipping what the checkpoint covers
+        journal.putInt(HEADER_SIZE, 0);
+        journal.putLong(4, seq);
+        journal.putInt(0, STATE_OPEN);
+        journal.position(HEADER_SIZE);
+        journal.force(0, HEADER_SIZE + 4);
+    }
+
+    /**
+     * Reads the checkpoint file back into a game.
+     *
+     * @return : The game as it was at the checkpoint.
+     * @throws IOException : If the checkpoint cannot be read or is corrupted.
+     */
+    private GameLogic readCheckpoint() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpointFile)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                throw new IOException("Checkpoint is corrupted");
+            }
+            checkpointSeq = in.readLong();
+            String mapName = in.readUTF();
+            int goldRequired = in.readInt();
+            char[][] tiles = new char[in.readInt()][];
+            for (int i = 0; i < tiles.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                tiles[i] = new String(bytes, StandardCharsets.ISO_8859_1).toCharArray();
+            }
+            HumanPlayer player = new HumanPlayer();
+            BotPlayer bot = new BotPlayer();
+            readPlayer(in, player);
+            readPlayer(in, bot);
+            return new GameLogic(new Map(mapName, goldRequired, tiles), player, bot);
+        }
+    }
+
+    private void writePlayer(DataOutputStream out, HumanPlayer player) throws IOException {
+        out.writeInt(player.getPosition()[0]);
+        out.writeInt(player.getPosition()[1]);
+        out.writeInt(player.getGold());
+        out.writeChar(player.getLiftedChar());
+    }
+
+    private void readPlayer(DataInputStream in, HumanPlayer player) throws IOException {
+        player.setPosition(in.readInt(), in.readInt());
+        player.setGold(in.readInt());
+        player.setLiftedChar(in.readChar());
+    }
+
+    /**
+     * Starts the background thread that syncs the journal, committing
+     * every command appended since the last sync in one go.
+     */
+    private void startFlusher() {
+        flusher = new Thread(() -> {
+            long flushedSeq = appendedSeq;
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(flushMillis);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                long target = appendedSeq;
+                if (target != flushedSeq) {
+                    journal.force();
+                    flushedSeq = target;
+                }
+            }
+            journal.force();
+        }, "session-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+}
@@ -0,0 +1,130 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Checks that a game recovered by the SessionStore matches the game as it
+ * was played, including after the journal has filled up and started again.
+ *
+ * Run with: java SessionStoreTest
+ *
+ */
+public class SessionStoreTest {
+
+    /**
+     * Plays a scripted game for a number of turns while journaling it to a
+     * small journal, abandons the store without closing it as if the game
+     * had been killed, and recovers it in a fresh store.
+     *
+     * @param turns : Number of turns to play before abandoning the store.
+     * @param journalSize : Size of the journal in bytes.
+     * @return : Whether the recovered game matches the played one.
+     * @throws IOException : If the session files cannot be written.
+     */
+    protected static boolean recoversAfter(int turns, int journalSize) throws IOException {
+        File directory = Files.createTempDirectory("session").toFile();
+        boolean matches = recoversGame(directory, turns, journalSize, turns);
+        deleteDirectory(directory);
+        return matches;
+    }
+
+    /**
+     * Plays a game to the end and closes its store, then starts a new game
+     * in the same directory, abandons it after a number of turns and
+     * recovers it. Only the new game's commands should be replayed.
+     *
+     * @param finishedTurns : Number of turns the finished game plays.
+     * @param turns : Number of turns the new game plays before being abandoned.
+     * @param journalSize : Size of the journal in bytes.
+     * @return : Whether the recovered game matches the new one.
+     * @throws IOException : If the session files cannot be written.
+     */
+    protected static boolean recoversNewGameAfterFinishedOne(int finishedTurns, int turns, int journalSize)
+            throws IOException {
+        File directory = Files.createTempDirectory("session").toFile();
+        GameLogic finished = new GameLogic(new Map(), new RunnerPlayer(new EvadeStrategy(), new Random(1)),
+                new BotPlayer(new RandomStrategy(), new Random(2)), new Random(3));
+        SessionStore store = new SessionStore(directory, journalSize, Long.MAX_VALUE, 1);
+        store.start(finished);
+        for (int turn = 0; turn < finishedTurns; turn++) {
+            finished.processCommand(finished.getPlayer());
+            finished.processCommand(finished.getBot());
+        }
+        store.close();
+
+        boolean matches = recoversGame(directory, turns, journalSize, finishedTurns + turns);
+        deleteDirectory(directory);
+        return matches;
+    }
+
+    /**
+     * Plays a scripted game in a directory, abandons its store without
+     * closing it, and recovers it in a fresh store.
+     *
+     * @param directory : The directory to save the session in.
+     * @param turns : Number of turns to play before abandoning the store.
+     * @param journalSize : Size of the journal in bytes.
+     * @param seed : Seed for the game's starting positions and moves.
+     * @return : Whether the recovered game matches the played one.
+     * @throws IOException : If the session files cannot be written.
+     */
+    private static boolean recoversGame(File directory, int turns, int journalSize, long seed) throws IOException {
+        RunnerPlayer player = new RunnerPlayer(new EvadeStrategy(), new Random(seed));
+        BotPlayer bot = new BotPlayer(new RandomStrategy(), new Random(seed + 1));
+        GameLogic logic = new GameLogic(new Map(), player, bot, new Random(seed + 2));
+        SessionStore store = new SessionStore(directory, journalSize, Long.MAX_VALUE, 1);
+        store.start(logic);
+        for (int turn = 0; turn < turns; turn++) {
+            logic.processCommand(player);
+            logic.processCommand(bot);
+        }
+
+        SessionStore recoveredStore = new SessionStore(directory, journalSize, Long.MAX_VALUE, 1);
+        GameLogic recovered = recoveredStore.recover();
+        boolean matches = Arrays.deepEquals(logic.getMap().getMap(), recovered.getMap().getMap())
+                && Arrays.equals(player.getPosition(), recovered.getPlayer().getPosition())
+                && Arrays.equals(bot.getPosition(), recovered.getBot().getPosition())
+                && player.getGold() == recovered.getPlayer().getGold()
+                && player.getLiftedChar() == recovered.getPlayer().getLiftedChar()
+                && bot.getLiftedChar() == recovered.getBot().getLiftedChar();
+        store.close();
+        recoveredStore.close();
+        return matches;
+    }
+
+    private static void deleteDirectory(File directory) {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Runs the checks and exits with a failure status if any fail.
+     *
+     * @param args : Command line arguments, unused.
+     * @throws IOException : If the session files cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int failures = 0;
+        for (int journalSize : new int[]{1024, 4096, 1 << 20}) { // The smaller journals wrap many times
+            for (int turns : new int[]{1, 57, 200, 230, 1000}) {
+                boolean passed = recoversAfter(turns, journalSize);
+                System.out.println((passed ? "PASS" : "FAIL") + " journal " + journalSize + " bytes, " + turns + " turns");
+                if (!passed) {
+                    failures++;
+                }
+            }
+            boolean passed = recoversNewGameAfterFinishedOne(200, 20, journalSize);
+            System.out.println((passed ? "PASS" : "FAIL") + " journal " + journalSize + " bytes, 20 turns after a finished game");
+            if (!passed) {
+                failures++;
+            }
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
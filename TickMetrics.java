@@ -0,0 +1,101 @@
+/**
+ * Records how long each tick of a real-time game takes and how late it
+ * starts, so that an overloaded map or bot population shows up in the
+ * numbers rather than as a sluggish game.
+ *
+ * Only the ticking thread records into an instance. It must not be read
+ * until the ticking has stopped.
+ *
+ */
+public class TickMetrics {
+
+    /* Durations are bucketed by powers of two microseconds for percentiles */
+    private final long[] durationBuckets = new long[32];
+
+    private final long periodNanos;
+    private long firstStart = -1;
+    private long ticks;
+    private long totalDuration;
+    private long maxDuration;
+    private long totalJitter;
+    private long maxJitter;
+    private long overruns;
+    private long missedDeadlines;
+
+    /**
+     * Builds an empty recorder.
+     *
+     * @param periodNanos : The period the ticks are scheduled at.
+     */
+    public TickMetrics(long periodNanos) {
+        this.periodNanos = periodNanos;
+    }
+
+    /**
+     * Records a finished tick.
+     *
+     * @param start : System.nanoTime() when the tick started.
+     * @param end : System.nanoTime() when the tick finished.
+     */
+    protected void recordTick(long start, long end) {
+        if (firstStart < 0) {
+            firstStart = start;
+        }
+        long jitter = Math.max(0, start - (firstStart + ticks * periodNanos)); // Lateness against the fixed schedule
+        long duration = end - start;
+        ticks++;
+        totalDuration += duration;
+        maxDuration = Math.max(maxDuration, duration);
+        totalJitter += jitter;
+        maxJitter = Math.max(maxJitter, jitter);
+        if (duration > periodNanos) {
+            overruns++;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(duration / 1000);
+        durationBuckets[Math.min(bucket, durationBuckets.length - 1)]++;
+    }
+
+    /**
+     * Records a bot that did not decide on a move before the deadline.
+     */
+    protected void recordMissedDeadline() {
+        missedDeadlines++;
+    }
+
+    /**
+     * Returns an upper bound on the given percentile of tick durations.
+     *
+     * @param percentile : The percentile, between 0 and 100.
+     * @return : The duration in microseconds that the percentile falls under.
+     */
+    protected long durationPercentileMicros(double percentile) {
+        long wanted = (long) Math.ceil(ticks * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < durationBuckets.length; i++) {
+            seen += durationBuckets[i];
+            if (seen >= wanted) {
+                return 1L << i;
+            }
+        }
+        return maxDuration / 1000;
+    }
+
+    /**
+     * Returns a summary of the recorded ticks.
+     *
+     * @return : A human readable summary.
+     */
+    @Override
+    public String toString() {
+        if (ticks == 0) {
+            return "No ticks recorded";
+        }
+        return String.format("Ticks: %d, overran period: %d, missed bot deadlines: %d%n"
+                        + "Tick duration (us): mean %d, p50 <= %d, p99 <= %d, max %d%n"
+                        + "Tick jitter (us): mean %d, max %d",
+                ticks, overruns, missedDeadlines,
+                totalDuration / ticks / 1000, durationPercentileMicros(50), durationPercentileMicros(99),
+                maxDuration / 1000, totalJitter / ticks / 1000, maxJitter / 1000);
+    }
+
+}
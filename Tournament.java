@@ -0,0 +1,276 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ranks bot strategies by playing every runner strategy against every
+ * chaser strategy, with the runner as the player and the chaser as the bot,
+ * across a set of maps and seeds. Strategies only play the roles they were
+ * written for, and chasers and runners are ranked separately.
+ *
+ * Games are split across a work-stealing pool. Each task keeps its own
+ * statistics and they are merged as the tasks join, so games never
+ * contend on shared counters.
+ *
+ */
+public class Tournament {
+
+    /* Number of games a single task plays before it stops splitting */
+    private static final int GAMES_PER_TASK = 256;
+
+    private final BotStrategy[] runners;
+    private final BotStrategy[] chasers;
+    private final Map[] maps;
+    private final int seeds;
+    private final int maxTurns;
+
+    /**
+     * Builds a tournament.
+     *
+     * @param strategies : The strategies taking part, in whichever roles they can play.
+     * @param maps : The maps to play on. They are copied for each game.
+     * @param seeds : Number of seeds to play each pairing with on each map.
+     * @param maxTurns : Turns after which the runner is deemed to have escaped.
+     */
+    public Tournament(BotStrategy[] strategies, Map[] maps, int seeds, int maxTurns) {
+        this.runners = Arrays.stream(strategies).filter(BotStrategy::canRun).toArray(BotStrategy[]::new);
+        this.chasers = Arrays.stream(strategies).filter(BotStrategy::canChase).toArray(BotStrategy[]::new);
+        this.maps = maps;
+        this.seeds = seeds;
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Statistics for a single pairing of runner and chaser.
+     */
+    protected static class MatchupStats {
+        long games;
+        long captures;
+        long turnsToCapture;
+        long gold;
+
+        /**
+         * Adds another accumulator's totals to this one.
+         *
+         * @param other : The statistics to merge in.
+         */
+        void merge(MatchupStats other) {
+            games += other.games;
+            captures += other.captures;
+            turnsToCapture += other.turnsToCapture;
+            gold += other.gold;
+        }
+
+        double captureRate() {
+            return games == 0 ? 0 : (double) captures / games;
+        }
+
+        double averageTurnsToCapture() {
+            return captures == 0 ? 0 : (double) turnsToCapture / captures;
+        }
+
+        double averageGold() {
+            return games == 0 ? 0 : (double) gold / games;
+        }
+    }
+
+    /**
+     * Plays a range of games, splitting it in half until it is small enough.
+     * Game i plays pairing i % pairs, on map (i / pairs) % maps, with seed i / (pairs * maps).
+     */
+    private class GameRange extends RecursiveTask<MatchupStats[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        GameRange(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MatchupStats[] compute() {
+            if (to - from > GAMES_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                GameRange left = new GameRange(from, middle);
+                left.fork();
+                MatchupStats[] right = new GameRange(middle, to).compute();
+                MatchupStats[] merged = left.join();
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i].merge(right[i]);
+                }
+                return merged;
+            }
+            int pairs = runners.length * chasers.length;
+            MatchupStats[] stats = new MatchupStats[pairs];
+            for (int i = 0; i < pairs; i++) {
+                stats[i] = new MatchupStats();
+            }
+            for (long game = from; game < to; game++) {
+                int pair = (int) (game % pairs);
+                int mapIndex = (int) ((game / pairs) % maps.length);
+                long seed = game / ((long) pairs * maps.length);
+                playGame(pair / chasers.length, pair % chasers.length, mapIndex, seed, stats[pair]);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Plays a single game until the runner is caught or runs out of turns.
+     * The seed decides the starting positions, so every pairing starts a
+     * given map and seed from the same tiles.
+     *
+     * @param runner : Index of the runner strategy playing as the player.
+     * @param chaser : Index of the chaser strategy playing as the bot.
+     * @param mapIndex : Index of the map to play on.
+     * @param seed : Seed for starting positions and strategy choices.
+     * @param stats : Statistics to record the result into.
+     */
+    protected void playGame(int runner, int chaser, int mapIndex, long seed, MatchupStats stats) {
+        long mapSeed = seed * maps.length + mapIndex;
+        RunnerPlayer player = new RunnerPlayer(runners[runner], new Random(mapSeed * 31 + 1));
+        BotPlayer bot = new BotPlayer(chasers[chaser], new Random(mapSeed * 31 + 2));
+        GameLogic logic = new GameLogic(new Map(maps[mapIndex]), player, bot, new Random(mapSeed));
+        stats.games++;
+        for (int turn = 1; turn <= maxTurns; turn++) {
+            logic.processCommand(player);
+            logic.processCommand(bot);
+            if (logic.isCaptured()) {
+                stats.captures++;
+                stats.turnsToCapture += turn;
+                break;
+            }
+        }
+        stats.gold += player.getGold();
+    }
+
+    /**
+     * Plays every game of the tournament on the given pool.
+     *
+     * @param pool : The pool to play the games on.
+     * @return : Statistics for each pairing, indexed by runner * chasers + chaser.
+     */
+    public MatchupStats[] run(ForkJoinPool pool) {
+        return pool.invoke(new GameRange(0, getGames()));
+    }
+
+    /**
+     * Returns the number of games the tournament plays.
+     *
+     * @return : Games across every pairing, map and seed.
+     */
+    public long getGames() {
+        return (long) runners.length * chasers.length * maps.length * seeds;
+    }
+
+    /**
+     * Prints the statistics for each pairing, then the chasers ranked by how
+     * often and how quickly they catch, and the runners ranked by how often
+     * they escape and how much gold they collect.
+     *
+     * @param stats : Statistics as returned by run.
+     */
+    protected void printResults(MatchupStats[] stats) {
+        int n = chasers.length;
+        System.out.println(String.format("%-10s %-10s %10s %10s %14s %10s",
+                "Runner", "Chaser", "Games", "Captured", "Turns to catch", "Gold"));
+        for (int i = 0; i < stats.length; i++) {
+            System.out.println(String.format("%-10s %-10s %10d %9.1f%% %14.1f %10.2f",
+                    runners[i / n].getName(), chasers[i % n].getName(), stats[i].games,
+                    stats[i].captureRate() * 100, stats[i].averageTurnsToCapture(), stats[i].averageGold()));
+        }
+
+        List<MatchupStats> asChaser = new ArrayList<>();
+        for (int c = 0; c < chasers.length; c++) {
+            MatchupStats total = new MatchupStats();
+            for (int r = 0; r < runners.length; r++) {
+                total.merge(stats[r * n + c]);
+            }
+            asChaser.add(total);
+        }
+        Integer[] chaserOrder = rank(chasers.length, Comparator
+                .comparingDouble((Integer c) -> -asChaser.get(c).captureRate())
+                .thenComparingDouble(c -> asChaser.get(c).averageTurnsToCapture()));
+        System.out.println();
+        System.out.println(String.format("%-5s %-10s %10s %14s", "Rank", "Chaser", "Captures", "Turns to catch"));
+        for (int i = 0; i < chaserOrder.length; i++) {
+            MatchupStats total = asChaser.get(chaserOrder[i]);
+            System.out.println(String.format("%-5d %-10s %9.1f%% %14.1f", i + 1,
+                    chasers[chaserOrder[i]].getName(), total.captureRate() * 100, total.averageTurnsToCapture()));
+        }
+
+        List<MatchupStats> asRunner = new ArrayList<>();
+        for (int r = 0; r < runners.length; r++) {
+            MatchupStats total = new MatchupStats();
+            for (int c = 0; c < chasers.length; c++) {
+                total.merge(stats[r * n + c]);
+            }
+            asRunner.add(total);
+        }
+        Integer[] runnerOrder = rank(runners.length, Comparator
+                .comparingDouble((Integer r) -> asRunner.get(r).captureRate())
+                .thenComparingDouble(r -> -asRunner.get(r).averageGold()));
+        System.out.println();
+        System.out.println(String.format("%-5s %-10s %10s %10s", "Rank", "Runner", "Escapes", "Gold"));
+        for (int i = 0; i < runnerOrder.length; i++) {
+            MatchupStats total = asRunner.get(runnerOrder[i]);
+            System.out.println(String.format("%-5d %-10s %9.1f%% %10.2f", i + 1,
+                    runners[runnerOrder[i]].getName(), (1 - total.captureRate()) * 100, total.averageGold()));
+        }
+    }
+
+    /**
+     * Sorts the indices 0 to n - 1 best first.
+     *
+     * @param n : Number of indices.
+     * @param best : Orders better indices first.
+     * @return : The sorted indices.
+     */
+    private static Integer[] rank(int n, Comparator<Integer> best) {
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, best);
+        return order;
+    }
+
+    /**
+     * Runs a tournament between all the built-in strategies.
+     *
+     * Usage: java Tournament [seeds] [max turns] [map files...]
+     * The maps must be located in the directory the tournament is executed
+     * from. If none are given, the example maps are used.
+     *
+     * @param args : Command line arguments as above.
+     */
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int maxTurns = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String[] fileNames = args.length > 2 ? Arrays.copyOfRange(args, 2, args.length)
+                : new String[]{"small_example_map.txt", "medium_example_map.txt",
+                               "large_example_map.txt", "nonsquare_example_map.txt"};
+        Map[] maps = new Map[fileNames.length];
+        for (int i = 0; i < fileNames.length; i++) {
+            maps[i] = new Map(fileNames[i]);
+        }
+        BotStrategy[] strategies = {new BotPlayer(), new EvadeStrategy(), new RandomStrategy()};
+
+        Tournament tournament = new Tournament(strategies, maps, seeds, maxTurns);
+        long start = System.nanoTime();
+        MatchupStats[] stats = tournament.run(ForkJoinPool.commonPool());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        tournament.printResults(stats);
+        long games = tournament.getGames();
+        System.out.println();
+        System.out.println(String.format("%d games in %.2fs (%.0f games per hour)",
+                games, seconds, games / seconds * 3600));
+    }
+}